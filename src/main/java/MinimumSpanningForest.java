@@ -0,0 +1,552 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * {@code MinimumSpanningForest} is a minimum spanning forest of an undirected, weighted graph whose vertices are the
+ * integers {@code 0} to {@code vertexCount - 1}.
+ * <p>
+ * The forest is found with filter-Kruskal: edges are partitioned around a pivot weight, the lighter edges are handled
+ * first, and heavier edges whose endpoints have already been connected are discarded before they are ever sorted.
+ * Connectivity is tracked by an array-based union-find over the vertex indices, so the main loop allocates nothing.
+ * Large partition and filter passes run in parallel, scattering edges through a second set of edge arrays.
+ */
+public class MinimumSpanningForest {
+
+	/**
+	 * The number of edges at or below which a range is sorted outright rather than partitioned and filtered.
+	 */
+	private static final int SORT_THRESHOLD = 1 << 8;
+
+	/**
+	 * The number of edges at or below which a range is sorted by insertion sort.
+	 */
+	private static final int INSERTION_SORT_THRESHOLD = 16;
+
+	/**
+	 * The number of edges at or above which a partition or filter pass runs in parallel.
+	 */
+	private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+	/**
+	 * The minimum number of edges handled by each task of a parallel partition or filter pass.
+	 */
+	private static final int PARALLEL_BLOCK_SIZE = 1 << 14;
+
+	private final int[] edges;
+	private final int[] componentLabels;
+	private final int componentCount;
+	private final double totalWeight;
+
+	private MinimumSpanningForest(int[] edges, int[] componentLabels, int componentCount, double totalWeight) {
+		this.edges = edges;
+		this.componentLabels = componentLabels;
+		this.componentCount = componentCount;
+		this.totalWeight = totalWeight;
+	}
+
+	/**
+	 * Finds a minimum spanning forest of the graph whose {@code i}th edge joins vertices {@code src[i]} and {@code
+	 * dst[i]} with weight {@code weight[i]}. Self-loops are permitted, but are never part of the forest. The given
+	 * arrays are not modified.
+	 * <p>
+	 * The edges are copied into working arrays, alongside the index of each edge, so this method needs 20 bytes of
+	 * working memory per edge, and a further 21 bytes per edge for the scratch arrays of the parallel passes if there
+	 * are at least 65,536 edges: about 12 GB for 300 million edges, on top of the given arrays. Callers that do not
+	 * need the given arrays preserved can use {@link #ofInPlace(int, int[], int[], double[])} instead, which copies
+	 * nothing and needs at most 17 bytes of working memory per edge.
+	 *
+	 * @param vertexCount the number of vertices in the graph
+	 * @param src         the first endpoint of each edge
+	 * @param dst         the second endpoint of each edge
+	 * @param weight      the weight of each edge
+	 * @return a minimum spanning forest of the graph
+	 * @throws NullPointerException     if any of the arrays is null
+	 * @throws IllegalArgumentException if the vertex count is negative, the arrays are not the same length, an
+	 *                                  endpoint is not a vertex of the graph, or a weight is NaN
+	 */
+	public static MinimumSpanningForest of(int vertexCount, int[] src, int[] dst, double[] weight) {
+		checkArrays(vertexCount, src, dst, weight);
+
+		Engine engine = new Engine(vertexCount, src.length);
+		for (int i = 0; i < src.length; i++) {
+			engine.addEdge(i, src[i], dst[i], weight[i]);
+		}
+		return engine.run();
+	}
+
+	/**
+	 * Finds a minimum spanning forest of the graph whose {@code i}th edge joins vertices {@code src[i]} and {@code
+	 * dst[i]} with weight {@code weight[i]}, using the given arrays as working space. Self-loops are permitted, but
+	 * are never part of the forest.
+	 * <p>
+	 * The given arrays are permuted in place, keeping each edge's endpoints and weight at the same index as one
+	 * another, and the edges of the returned forest are identified by their indices in the permuted arrays rather
+	 * than the original ones. Edges are not copied, so the only working memory needed in proportion to the number of
+	 * edges is 17 bytes per edge for the scratch arrays of the parallel passes, if there are at least 65,536 edges. If
+	 * an exception is thrown, the arrays are not modified.
+	 *
+	 * @param vertexCount the number of vertices in the graph
+	 * @param src         the first endpoint of each edge
+	 * @param dst         the second endpoint of each edge
+	 * @param weight      the weight of each edge
+	 * @return a minimum spanning forest of the graph, whose edge indices refer to the permuted arrays
+	 * @throws NullPointerException     if any of the arrays is null
+	 * @throws IllegalArgumentException if the vertex count is negative, the arrays are not the same length, an
+	 *                                  endpoint is not a vertex of the graph, or a weight is NaN
+	 * @see #of(int, int[], int[], double[])
+	 */
+	public static MinimumSpanningForest ofInPlace(int vertexCount, int[] src, int[] dst, double[] weight) {
+		checkArrays(vertexCount, src, dst, weight);
+
+		Engine engine = new Engine(vertexCount, src, dst, weight);
+		for (int i = 0; i < src.length; i++) {
+			engine.checkEdge(i, src[i], dst[i], weight[i]);
+		}
+		// Self-loops are moved to the end of the arrays, where they are never considered.
+		for (int i = 0; i < src.length; i++) {
+			if (src[i] != dst[i]) {
+				engine.addEdgeInPlace(i);
+			}
+		}
+		return engine.run();
+	}
+
+	/**
+	 * Finds a minimum spanning forest of the graph whose edges are given by a stream. The {@code i}th element of the
+	 * stream is the edge with index {@code i} in the returned forest.
+	 * <p>
+	 * The stream is collected into an array, and its edges are then copied into working arrays, so this method needs
+	 * the working memory of {@link #of(int, int[], int[], double[])} in addition to the collected edges.
+	 *
+	 * @param vertexCount the number of vertices in the graph
+	 * @param edges       the edges of the graph
+	 * @param src         a function that gets the first endpoint of an edge
+	 * @param dst         a function that gets the second endpoint of an edge
+	 * @param weight      a function that gets the weight of an edge
+	 * @param <E>         the type of the edges
+	 * @return a minimum spanning forest of the graph
+	 * @throws NullPointerException     if any of the arguments is null
+	 * @throws IllegalArgumentException if the vertex count is negative, an endpoint is not a vertex of the graph, or a
+	 *                                  weight is NaN
+	 * @see #of(int, int[], int[], double[])
+	 * @see #ofInPlace(int, int[], int[], double[])
+	 */
+	public static <E> MinimumSpanningForest of(int vertexCount, Stream<? extends E> edges,
+		ToIntFunction<? super E> src, ToIntFunction<? super E> dst, ToDoubleFunction<? super E> weight) {
+		if (edges == null || src == null || dst == null || weight == null) {
+			throw new NullPointerException();
+		} else if (vertexCount < 0) {
+			throw new IllegalArgumentException("Vertex count must not be negative, but was " + vertexCount);
+		}
+
+		Object[] edgeArray = edges.toArray();
+		Engine engine = new Engine(vertexCount, edgeArray.length);
+		for (int i = 0; i < edgeArray.length; i++) {
+			@SuppressWarnings("unchecked")
+			E e = (E) edgeArray[i];
+			engine.addEdge(i, src.applyAsInt(e), dst.applyAsInt(e), weight.applyAsDouble(e));
+		}
+		return engine.run();
+	}
+
+	private static void checkArrays(int vertexCount, int[] src, int[] dst, double[] weight) {
+		if (src == null || dst == null || weight == null) {
+			throw new NullPointerException();
+		} else if (vertexCount < 0) {
+			throw new IllegalArgumentException("Vertex count must not be negative, but was " + vertexCount);
+		} else if (src.length != dst.length || src.length != weight.length) {
+			throw new IllegalArgumentException("Arrays must be the same length, but were " + src.length + ", " +
+				dst.length + ", and " + weight.length);
+		}
+	}
+
+	/**
+	 * Gets the indices of the edges in this forest, in order of non-decreasing weight.
+	 * <p>
+	 * The returned array is not backed by this forest; the caller is free to modify it.
+	 *
+	 * @return the indices of the edges in this forest
+	 */
+	public int[] getEdges() {
+		return edges.clone();
+	}
+
+	/**
+	 * Gets the component label of each vertex. Two vertices have the same label if and only if they are connected by
+	 * this forest. Labels are numbered from {@code 0} to {@code getComponentCount() - 1}, in order of the smallest
+	 * vertex in each component.
+	 * <p>
+	 * The returned array is not backed by this forest; the caller is free to modify it.
+	 *
+	 * @return an array containing the component label of each vertex
+	 */
+	public int[] getComponentLabels() {
+		return componentLabels.clone();
+	}
+
+	/**
+	 * @return the number of connected components (including isolated vertices) in this forest
+	 */
+	public int getComponentCount() {
+		return componentCount;
+	}
+
+	/**
+	 * @return the sum of the weights of the edges in this forest
+	 */
+	public double getTotalWeight() {
+		return totalWeight;
+	}
+
+	/**
+	 * Holds the working state of a single computation. Edges are stored as parallel arrays that are permuted in place,
+	 * and connectivity is tracked by union by rank with path halving over the vertex indices. The edge arrays are
+	 * either copies, with the original index of each edge in {@code id}, or the caller's own arrays, in which case
+	 * {@code id} is null and edges are identified by their final positions.
+	 */
+	private static class Engine {
+
+		private final int vertexCount;
+		private final int[] parent;
+		private final byte[] rank;
+
+		private final int[] id;
+		private final int[] src;
+		private final int[] dst;
+		private final double[] weight;
+		private int edgeCount = 0;
+
+		// Scratch space for parallel passes, allocated only if there are enough edges for those passes to run.
+		private byte[] edgeClass;
+		private int[] scratchId;
+		private int[] scratchSrc;
+		private int[] scratchDst;
+		private double[] scratchWeight;
+
+		private final int[] forest;
+		private int forestSize = 0;
+		private double totalWeight = 0;
+
+		public Engine(int vertexCount, int maxEdgeCount) {
+			this.vertexCount = vertexCount;
+			this.parent = new int[vertexCount];
+			this.rank = new byte[vertexCount];
+			for (int v = 0; v < vertexCount; v++) {
+				parent[v] = v;
+			}
+
+			this.id = new int[maxEdgeCount];
+			this.src = new int[maxEdgeCount];
+			this.dst = new int[maxEdgeCount];
+			this.weight = new double[maxEdgeCount];
+			this.forest = new int[Math.max(vertexCount - 1, 0)];
+		}
+
+		public Engine(int vertexCount, int[] src, int[] dst, double[] weight) {
+			this.vertexCount = vertexCount;
+			this.parent = new int[vertexCount];
+			this.rank = new byte[vertexCount];
+			for (int v = 0; v < vertexCount; v++) {
+				parent[v] = v;
+			}
+
+			this.id = null;
+			this.src = src;
+			this.dst = dst;
+			this.weight = weight;
+			this.forest = new int[Math.max(vertexCount - 1, 0)];
+		}
+
+		public void checkEdge(int i, int s, int d, double w) {
+			if (s < 0 || s >= vertexCount || d < 0 || d >= vertexCount) {
+				throw new IllegalArgumentException("Edge " + i + " (" + s + ", " + d + ") has an endpoint that is " +
+					"not a vertex of a graph with " + vertexCount + " vertices");
+			} else if (Double.isNaN(w)) {
+				throw new IllegalArgumentException("Edge " + i + " has NaN weight");
+			}
+		}
+
+		public void addEdge(int i, int s, int d, double w) {
+			checkEdge(i, s, d, w);
+			if (s == d) {
+				return;
+			}
+
+			id[edgeCount] = i;
+			src[edgeCount] = s;
+			dst[edgeCount] = d;
+			weight[edgeCount] = w;
+			edgeCount++;
+		}
+
+		/**
+		 * Adds the edge at index {@code i} of the caller's arrays by swapping it to the end of the edges added so far.
+		 */
+		public void addEdgeInPlace(int i) {
+			swap(edgeCount++, i);
+		}
+
+		public MinimumSpanningForest run() {
+			if (edgeCount >= PARALLEL_THRESHOLD) {
+				edgeClass = new byte[edgeCount];
+				scratchId = id == null ? null : new int[edgeCount];
+				scratchSrc = new int[edgeCount];
+				scratchDst = new int[edgeCount];
+				scratchWeight = new double[edgeCount];
+			}
+			filterKruskal(0, edgeCount);
+
+			int[] labels = new int[vertexCount];
+			for (int v = 0; v < vertexCount; v++) {
+				labels[v] = -1;
+			}
+			int labelCount = 0;
+			for (int v = 0; v < vertexCount; v++) {
+				int r = find(v);
+				if (labels[r] == -1) {
+					labels[r] = labelCount++;
+				}
+				labels[v] = labels[r];
+			}
+
+			int[] edges = forestSize == forest.length ? forest : Arrays.copyOf(forest, forestSize);
+			return new MinimumSpanningForest(edges, labels, labelCount, totalWeight);
+		}
+
+		/**
+		 * Adds the minimum spanning forest edges in {@code [lo, hi)} to the forest, given that every lighter edge has
+		 * already been considered.
+		 */
+		private void filterKruskal(int lo, int hi) {
+			while (hi - lo > SORT_THRESHOLD) {
+				if (forestSize == forest.length) {
+					return;
+				}
+
+				int[] ends = partition(lo, hi, choosePivot(lo, hi));
+				int lt = ends[0];
+				int gt = ends[1];
+
+				filterKruskal(lo, lt);
+				// Edges of equal weight may be considered in any order.
+				kruskal(lt, gt);
+				lo = gt;
+				hi = filter(gt, hi);
+			}
+
+			sort(lo, hi);
+			kruskal(lo, hi);
+		}
+
+		/**
+		 * Adds each edge in {@code [lo, hi)}, in order, to the forest if its endpoints are not yet connected.
+		 */
+		private void kruskal(int lo, int hi) {
+			for (int i = lo; i < hi && forestSize < forest.length; i++) {
+				int r1 = find(src[i]);
+				int r2 = find(dst[i]);
+				if (r1 != r2) {
+					union(r1, r2);
+					forest[forestSize++] = id == null ? i : id[i];
+					totalWeight += weight[i];
+				}
+			}
+		}
+
+		/**
+		 * Discards the edges in {@code [lo, hi)} whose endpoints are already connected, moving the remaining edges to
+		 * the front of the range and the discarded edges to the back.
+		 *
+		 * @return the end of the range of remaining edges
+		 */
+		private int filter(int lo, int hi) {
+			if (hi - lo >= PARALLEL_THRESHOLD) {
+				// No joins happen during the parallel pass, so the roots can be read without compressing paths.
+				return parallelPartition(lo, hi,
+					i -> findWithoutCompression(src[i]) != findWithoutCompression(dst[i]) ? 0 : 2)[0];
+			}
+
+			int j = lo;
+			for (int i = lo; i < hi; i++) {
+				if (find(src[i]) != find(dst[i])) {
+					if (i != j) {
+						swap(i, j);
+					}
+					j++;
+				}
+			}
+			return j;
+		}
+
+		/**
+		 * Partitions the edges in {@code [lo, hi)} into those lighter than, as heavy as, and heavier than the pivot, in
+		 * parallel if the range is large enough.
+		 *
+		 * @return the end of the lighter edges, followed by the end of the edges as heavy as the pivot
+		 */
+		private int[] partition(int lo, int hi, double pivot) {
+			if (hi - lo >= PARALLEL_THRESHOLD) {
+				return parallelPartition(lo, hi, i -> weight[i] < pivot ? 0 : weight[i] > pivot ? 2 : 1);
+			}
+
+			int lt = lo;
+			int gt = hi;
+			int i = lo;
+			while (i < gt) {
+				if (weight[i] < pivot) {
+					swap(lt++, i++);
+				} else if (weight[i] > pivot) {
+					swap(i, --gt);
+				} else {
+					i++;
+				}
+			}
+			return new int[]{lt, gt};
+		}
+
+		/**
+		 * Partitions the edges in {@code [lo, hi)} into three classes, numbered {@code 0} to {@code 2}, in parallel.
+		 * The range is split into blocks; each block counts its edges of each class, the counts determine where each
+		 * block writes each class, and the blocks then scatter their edges into the scratch arrays, which are copied
+		 * back. The relative order of edges in each class is preserved.
+		 *
+		 * @return the end of the edges of class {@code 0}, followed by the end of the edges of class {@code 1}
+		 */
+		private int[] parallelPartition(int lo, int hi, IntUnaryOperator classify) {
+			int blockCount = Math.max(1, Math.min((hi - lo) / PARALLEL_BLOCK_SIZE,
+				ForkJoinPool.getCommonPoolParallelism() * 4));
+			int blockSize = (hi - lo + blockCount - 1) / blockCount;
+
+			int[][] positions = new int[blockCount][3];
+			IntStream.range(0, blockCount).parallel().forEach(b -> {
+				int[] counts = positions[b];
+				for (int i = lo + b * blockSize, end = Math.min(i + blockSize, hi); i < end; i++) {
+					byte k = (byte) classify.applyAsInt(i);
+					edgeClass[i] = k;
+					counts[k]++;
+				}
+			});
+
+			// Replace each block's counts with the positions at which it writes each class.
+			int next = lo;
+			for (int k = 0; k < 3; k++) {
+				for (int b = 0; b < blockCount; b++) {
+					int count = positions[b][k];
+					positions[b][k] = next;
+					next += count;
+				}
+			}
+			int[] ends = {positions[0][1], positions[0][2]};
+
+			IntStream.range(0, blockCount).parallel().forEach(b -> {
+				int[] position = positions[b];
+				for (int i = lo + b * blockSize, end = Math.min(i + blockSize, hi); i < end; i++) {
+					int j = position[edgeClass[i]]++;
+					if (id != null) {
+						scratchId[j] = id[i];
+					}
+					scratchSrc[j] = src[i];
+					scratchDst[j] = dst[i];
+					scratchWeight[j] = weight[i];
+				}
+			});
+			IntStream.range(0, blockCount).parallel().forEach(b -> {
+				int start = lo + b * blockSize;
+				int length = Math.min(blockSize, hi - start);
+				if (length > 0) {
+					if (id != null) {
+						System.arraycopy(scratchId, start, id, start, length);
+					}
+					System.arraycopy(scratchSrc, start, src, start, length);
+					System.arraycopy(scratchDst, start, dst, start, length);
+					System.arraycopy(scratchWeight, start, weight, start, length);
+				}
+			});
+			return ends;
+		}
+
+		private void sort(int lo, int hi) {
+			while (hi - lo > INSERTION_SORT_THRESHOLD) {
+				int[] ends = partition(lo, hi, choosePivot(lo, hi));
+				int lt = ends[0];
+				int gt = ends[1];
+
+				// Recurse into the smaller side to bound the stack depth.
+				if (lt - lo < hi - gt) {
+					sort(lo, lt);
+					lo = gt;
+				} else {
+					sort(gt, hi);
+					hi = lt;
+				}
+			}
+
+			for (int i = lo + 1; i < hi; i++) {
+				for (int j = i; j > lo && weight[j - 1] > weight[j]; j--) {
+					swap(j - 1, j);
+				}
+			}
+		}
+
+		/**
+		 * Chooses the median weight of three random edges in {@code [lo, hi)}.
+		 */
+		private double choosePivot(int lo, int hi) {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			double a = weight[random.nextInt(lo, hi)];
+			double b = weight[random.nextInt(lo, hi)];
+			double c = weight[random.nextInt(lo, hi)];
+			return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+		}
+
+		private void swap(int i, int j) {
+			int t;
+			if (id != null) {
+				t = id[i];
+				id[i] = id[j];
+				id[j] = t;
+			}
+			t = src[i];
+			src[i] = src[j];
+			src[j] = t;
+			t = dst[i];
+			dst[i] = dst[j];
+			dst[j] = t;
+			double w = weight[i];
+			weight[i] = weight[j];
+			weight[j] = w;
+		}
+
+		private int find(int v) {
+			while (parent[v] != v) {
+				parent[v] = parent[parent[v]];
+				v = parent[v];
+			}
+			return v;
+		}
+
+		private int findWithoutCompression(int v) {
+			while (parent[v] != v) {
+				v = parent[v];
+			}
+			return v;
+		}
+
+		private void union(int r1, int r2) {
+			if (rank[r1] < rank[r2]) {
+				parent[r1] = r2;
+			} else if (rank[r1] > rank[r2]) {
+				parent[r2] = r1;
+			} else {
+				parent[r2] = r1;
+				rank[r1]++;
+			}
+		}
+	}
+}
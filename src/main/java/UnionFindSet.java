@@ -3,9 +3,9 @@ import com.google.common.collect.Iterators;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
-import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.*;
 
 /**
@@ -13,6 +13,18 @@ import static java.util.stream.Collectors.*;
  */
 public class UnionFindSet<T> implements Set<T> {
 
+	/**
+	 * The batch size at or above which batch queries resolve their roots in parallel, unless the caller chooses
+	 * otherwise.
+	 */
+	private static final int PARALLEL_BATCH_THRESHOLD = 1 << 13;
+
+	/**
+	 * The number of pairs handled by each task of a parallel {@link #areEquivalentAll(List, List, boolean)}; a multiple
+	 * of 64, so that each task writes to its own words of the result.
+	 */
+	private static final int PARALLEL_BATCH_BLOCK_SIZE = 1 << 10;
+
 	private final Map<T, UnionFindNode<T>> backingMap;
 
 	/**
@@ -59,7 +71,42 @@ public class UnionFindSet<T> implements Set<T> {
 		if (c == null) {
 			throw new NullPointerException();
 		}
-		this.backingMap = c.stream().distinct().collect(toMap(identity(), UnionFindNode::new));
+		this.backingMap = new HashMap<>(capacityFor(c.size()));
+		for (T t : c) {
+			backingMap.computeIfAbsent(t, UnionFindNode::new);
+		}
+	}
+
+	/**
+	 * Creates a new set containing the keys of the specified map, in which two elements are members of the same
+	 * equivalence class if and only if they are mapped to equal class keys. The backing <tt>HashMap</tt> is created
+	 * with default load factor (0.75) and an initial capacity sufficient to contain the keys of the specified map, and
+	 * each equivalence class is linked directly to its representative rather than built up by repeated calls to {@link
+	 * #join(Object, Object)}.
+	 *
+	 * @param classes a map from each element to be placed into the new set to the key of its equivalence class
+	 * @param <T>     the type of elements in the new set
+	 * @param <K>     the type of the equivalence class keys
+	 * @return a new set containing the keys of {@code classes}, partitioned by their class keys
+	 * @throws NullPointerException if the specified map is null
+	 */
+	public static <T, K> UnionFindSet<T> fromClasses(Map<? extends T, ? extends K> classes) {
+		if (classes == null) {
+			throw new NullPointerException();
+		}
+
+		UnionFindSet<T> set = new UnionFindSet<>(capacityFor(classes.size()));
+		Map<K, UnionFindNode<T>> representatives = new HashMap<>(capacityFor(classes.size()));
+		classes.forEach((t, k) -> {
+			UnionFindNode<T> n = new UnionFindNode<>(t);
+			UnionFindNode<T> r = representatives.putIfAbsent(k, n);
+			if (r != null) {
+				n.parent = r;
+				r.rank = 1;
+			}
+			set.backingMap.put(t, n);
+		});
+		return set;
 	}
 
 	/**
@@ -72,15 +119,144 @@ public class UnionFindSet<T> implements Set<T> {
 	 * @return {@code true} if both arguments are members of the same equivalence class.
 	 */
 	public boolean areEquivalent(T t1, T t2) {
-		if (!backingMap.containsKey(t1) || !backingMap.containsKey(t2)) {
+		UnionFindNode<T> n1 = backingMap.get(t1);
+		UnionFindNode<T> n2 = backingMap.get(t2);
+		if (n1 == null || n2 == null) {
 			return false;
 		}
 
-		UnionFindNode<T> n1 = backingMap.get(t1);
-		UnionFindNode<T> n2 = backingMap.get(t2);
 		return n1.isEquivalentTo(n2);
 	}
 
+	/**
+	 * Determines, for each index {@code i}, whether {@code a.get(i)} and {@code b.get(i)} are members of the same
+	 * equivalence class within this set. As with {@link #areEquivalent(Object, Object)}, a pair containing a value that
+	 * is not an element of the set is never considered equivalent.
+	 * <p>
+	 * Batches of 8192 or more pairs are resolved in parallel, with each task writing its own words of the result; use
+	 * {@link #areEquivalentAll(List, List, boolean)} to choose explicitly. This set must not be modified while this
+	 * method is in progress.
+	 *
+	 * @param a The first value of each pair
+	 * @param b The second value of each pair
+	 * @return A {@code BitSet} in which bit {@code i} is set if and only if {@code a.get(i)} and {@code b.get(i)} are
+	 * members of the same equivalence class.
+	 * @throws NullPointerException     if either list is null
+	 * @throws IllegalArgumentException if the lists are not the same size
+	 */
+	public BitSet areEquivalentAll(List<T> a, List<T> b) {
+		if (a == null || b == null) {
+			throw new NullPointerException();
+		}
+		return areEquivalentAll(a, b, a.size() >= PARALLEL_BATCH_THRESHOLD);
+	}
+
+	/**
+	 * Determines, for each index {@code i}, whether {@code a.get(i)} and {@code b.get(i)} are members of the same
+	 * equivalence class within this set, resolving the pairs either sequentially or in parallel, as specified.
+	 *
+	 * @param a        The first value of each pair
+	 * @param b        The second value of each pair
+	 * @param parallel {@code true} to resolve the pairs in parallel, or {@code false} to resolve them on the calling
+	 *                 thread
+	 * @return A {@code BitSet} in which bit {@code i} is set if and only if {@code a.get(i)} and {@code b.get(i)} are
+	 * members of the same equivalence class.
+	 * @throws NullPointerException     if either list is null
+	 * @throws IllegalArgumentException if the lists are not the same size
+	 * @see #areEquivalentAll(List, List)
+	 */
+	public BitSet areEquivalentAll(List<T> a, List<T> b, boolean parallel) {
+		if (a == null || b == null) {
+			throw new NullPointerException();
+		} else if (a.size() != b.size()) {
+			throw new IllegalArgumentException("Lists must be the same size, but were " + a.size() + " and " +
+				b.size());
+		}
+
+		List<T> l1 = a instanceof RandomAccess ? a : new ArrayList<>(a);
+		List<T> l2 = b instanceof RandomAccess ? b : new ArrayList<>(b);
+		int size = l1.size();
+		long[] words = new long[(size + 63) >>> 6];
+		if (parallel) {
+			// Path compression only ever redirects a node to one of its ancestors, so concurrent finds over a set that
+			// is not being joined all converge on the same roots.
+			IntStream.range(0, (size + PARALLEL_BATCH_BLOCK_SIZE - 1) / PARALLEL_BATCH_BLOCK_SIZE).parallel()
+				.forEach(block -> {
+					int from = block * PARALLEL_BATCH_BLOCK_SIZE;
+					resolvePairs(l1, l2, words, from, Math.min(from + PARALLEL_BATCH_BLOCK_SIZE, size));
+				});
+		} else {
+			resolvePairs(l1, l2, words, 0, size);
+		}
+		return BitSet.valueOf(words);
+	}
+
+	/**
+	 * Gets the canonical representative of the equivalence class of each of the given values. Two elements are members
+	 * of the same equivalence class if and only if they have the same representative. Representatives are stable until
+	 * the next call to a method that merges equivalence classes.
+	 * <p>
+	 * The returned map is not backed by this set. Values that are not elements of this set are absent from it.
+	 * Batches of 8192 or more values are resolved in parallel; use {@link #rootsOf(Collection, boolean)} to choose
+	 * explicitly. This set must not be modified while this method is in progress.
+	 *
+	 * @param c The values whose representatives should be found
+	 * @return A map from each given value that is an element of this set to the representative of its equivalence
+	 * class.
+	 * @throws NullPointerException if the specified collection is null
+	 */
+	public Map<T, T> rootsOf(Collection<T> c) {
+		if (c == null) {
+			throw new NullPointerException();
+		}
+		return rootsOf(c, c.size() >= PARALLEL_BATCH_THRESHOLD);
+	}
+
+	/**
+	 * Gets the canonical representative of the equivalence class of each of the given values, resolving the values
+	 * either sequentially or in parallel, as specified. In parallel, the values are looked up and resolved
+	 * concurrently, and then collected into the returned map on the calling thread.
+	 *
+	 * @param c        The values whose representatives should be found
+	 * @param parallel {@code true} to resolve the values in parallel, or {@code false} to resolve them on the calling
+	 *                 thread
+	 * @return A map from each given value that is an element of this set to the representative of its equivalence
+	 * class.
+	 * @throws NullPointerException if the specified collection is null
+	 * @see #rootsOf(Collection)
+	 */
+	public Map<T, T> rootsOf(Collection<T> c, boolean parallel) {
+		if (c == null) {
+			throw new NullPointerException();
+		}
+
+		Map<T, T> representatives = new HashMap<>(capacityFor(c.size()));
+		if (!parallel) {
+			for (T t : c) {
+				UnionFindNode<T> n = backingMap.get(t);
+				if (n != null) {
+					representatives.put(t, n.getRoot().getValue());
+				}
+			}
+			return representatives;
+		}
+
+		@SuppressWarnings("unchecked")
+		T[] values = (T[]) c.toArray();
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		UnionFindNode<T>[] roots = new UnionFindNode[values.length];
+		IntStream.range(0, values.length).parallel().forEach(i -> {
+			UnionFindNode<T> n = backingMap.get(values[i]);
+			roots[i] = n == null ? null : n.getRoot();
+		});
+		for (int i = 0; i < values.length; i++) {
+			if (roots[i] != null) {
+				representatives.put(values[i], roots[i].getValue());
+			}
+		}
+		return representatives;
+	}
+
 	/**
 	 * Merges the equivalence classes of two values. Values passed to this method that are not already elements are
 	 * added.
@@ -90,22 +266,8 @@ public class UnionFindSet<T> implements Set<T> {
 	 * @return {@code true} if the content or equivalence classes of this set change as a result of this method call.
 	 */
 	public boolean join(T t1, T t2) {
-		UnionFindNode<T> n1;
-		if (backingMap.containsKey(t1)) {
-			n1 = backingMap.get(t1);
-		} else {
-			n1 = new UnionFindNode<>(t1);
-			backingMap.put(t1, n1);
-		}
-
-		UnionFindNode<T> n2;
-		if (backingMap.containsKey(t2)) {
-			n2 = backingMap.get(t2);
-		} else {
-			n2 = new UnionFindNode<>(t2);
-			backingMap.put(t2, n2);
-		}
-
+		UnionFindNode<T> n1 = backingMap.computeIfAbsent(t1, UnionFindNode::new);
+		UnionFindNode<T> n2 = backingMap.computeIfAbsent(t2, UnionFindNode::new);
 		return n1.join(n2);
 	}
 
@@ -118,12 +280,12 @@ public class UnionFindSet<T> implements Set<T> {
 	 * @return {@code true} if the equivalence classes of this set change as a result of this method call.
 	 */
 	public boolean joinIfPresent(T t1, T t2) {
-		if (!backingMap.containsKey(t1) || !backingMap.containsKey(t2)) {
+		UnionFindNode<T> n1 = backingMap.get(t1);
+		UnionFindNode<T> n2 = backingMap.get(t2);
+		if (n1 == null || n2 == null) {
 			return false;
 		}
 
-		UnionFindNode<T> n1 = backingMap.get(t1);
-		UnionFindNode<T> n2 = backingMap.get(t2);
 		return n1.join(n2);
 	}
 
@@ -300,12 +462,9 @@ public class UnionFindSet<T> implements Set<T> {
 	 */
 	@Override
 	public boolean add(T t) {
-		if (backingMap.containsKey(t)) {
-			return false;
-		}
-
-		backingMap.put(t, new UnionFindNode<>(t));
-		return true;
+		int size = backingMap.size();
+		backingMap.computeIfAbsent(t, UnionFindNode::new);
+		return backingMap.size() != size;
 	}
 
 	/**
@@ -504,6 +663,28 @@ public class UnionFindSet<T> implements Set<T> {
 		return getEquivalenceClasses().toString();
 	}
 
+	/**
+	 * Gets an initial capacity for a <tt>HashMap</tt> with the default load factor (0.75) that is sufficient to hold
+	 * the given number of entries without rehashing.
+	 */
+	private static int capacityFor(int size) {
+		return Math.max((int) (size / 0.75F) + 1, 16);
+	}
+
+	/**
+	 * Determines whether each pair in {@code [from, to)} is equivalent, setting the corresponding bits of {@code
+	 * words}.
+	 */
+	private void resolvePairs(List<T> a, List<T> b, long[] words, int from, int to) {
+		for (int i = from; i < to; i++) {
+			UnionFindNode<T> n1 = backingMap.get(a.get(i));
+			UnionFindNode<T> n2 = backingMap.get(b.get(i));
+			if (n1 != null && n2 != null && n1.getRoot() == n2.getRoot()) {
+				words[i >>> 6] |= 1L << i;
+			}
+		}
+	}
+
 	private static class UnionFindNode<T> {
 
 		private final T value;
@@ -520,7 +701,12 @@ public class UnionFindSet<T> implements Set<T> {
 
 		public UnionFindNode<T> getRoot() {
 			if (parent != this) {
-				parent = parent.getRoot();
+				// Only write when the parent actually changes, so that finds on an already-compressed path do not
+				// dirty shared cache lines.
+				UnionFindNode<T> root = parent.getRoot();
+				if (root != parent) {
+					parent = root;
+				}
 			}
 			return parent;
 		}
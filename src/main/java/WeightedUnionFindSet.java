@@ -0,0 +1,314 @@
+import com.google.common.collect.Iterators;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * {@code WeightedUnionFindSet} implements a set that is partitioned into equivalence classes, and that additionally
+ * records a relation between every two elements of the same class. The relation between two elements is an integer
+ * offset: joining {@code t1} and {@code t2} with offset {@code delta} asserts that {@code t2} lies {@code delta} units
+ * beyond {@code t1}. Offsets compose along chains of joins, so the relation between any two equivalent elements can be
+ * found without storing or searching the joins themselves.
+ * <p>
+ * A set may be created with a modulus, in which case all offsets are reduced modulo that value. A modulus of {@code 2}
+ * records parity ("same" or "opposite") rather than a distance. Without a modulus, a join that would leave two
+ * members of a class further apart than a {@code long} can represent is rejected with an {@code ArithmeticException},
+ * so every relation recorded by the set can be queried.
+ */
+public class WeightedUnionFindSet<T> extends AbstractSet<T> {
+
+	private final Map<T, WeightedNode<T>> backingMap;
+	private final long modulus;
+
+	/**
+	 * Constructs a new, empty set whose offsets are unbounded integers.
+	 */
+	public WeightedUnionFindSet() {
+		this(0);
+	}
+
+	private WeightedUnionFindSet(long modulus) {
+		this.backingMap = new HashMap<>();
+		this.modulus = modulus;
+	}
+
+	/**
+	 * Constructs a new, empty set whose offsets are reduced modulo the given value.
+	 *
+	 * @param modulus the modulus of all offsets in the new set
+	 * @param <T>     the type of elements in the new set
+	 * @return a new, empty set whose offsets are reduced modulo {@code modulus}
+	 * @throws IllegalArgumentException if the modulus is less than one
+	 */
+	public static <T> WeightedUnionFindSet<T> withModulus(long modulus) {
+		if (modulus < 1) {
+			throw new IllegalArgumentException("Modulus must be positive, but was " + modulus);
+		}
+		return new WeightedUnionFindSet<>(modulus);
+	}
+
+	/**
+	 * Determines whether two values are members of the same equivalence class within this set. A value that is not an
+	 * element of the set is not considered to be in any equivalence class; passing such a value to this method will
+	 * always return {@code false}.
+	 *
+	 * @param t1 A value
+	 * @param t2 A value
+	 * @return {@code true} if both arguments are members of the same equivalence class.
+	 */
+	public boolean areEquivalent(T t1, T t2) {
+		WeightedNode<T> n1 = backingMap.get(t1);
+		WeightedNode<T> n2 = backingMap.get(t2);
+		if (n1 == null || n2 == null) {
+			return false;
+		}
+
+		return getRoot(n1) == getRoot(n2);
+	}
+
+	/**
+	 * Merges the equivalence classes of two values, recording that {@code t2} lies {@code delta} units beyond {@code
+	 * t1}. Values passed to this method that are not already elements are added.
+	 * <p>
+	 * If the values are already members of the same equivalence class, their existing relation must agree with {@code
+	 * delta}; otherwise the join contradicts an earlier one, and is rejected without modifying this set. In particular,
+	 * a value may only be joined to itself with an offset of zero.
+	 *
+	 * @param t1    A value to be joined
+	 * @param t2    A value to be joined
+	 * @param delta The offset from {@code t1} to {@code t2}
+	 * @return {@code true} if the content or equivalence classes of this set change as a result of this method call.
+	 * @throws IllegalArgumentException if the values are already equivalent, but with a different offset
+	 * @throws ArithmeticException      if this set has no modulus, and some offset between two members of the joined
+	 *                                  class would not fit in a {@code long}
+	 */
+	public boolean join(T t1, T t2, long delta) {
+		long d = normalize(delta);
+		if (Objects.equals(t1, t2)) {
+			if (d != 0) {
+				throw new IllegalArgumentException("Cannot join " + t1 + " to itself with non-zero offset " + delta);
+			}
+			return add(t1);
+		}
+
+		WeightedNode<T> n1 = backingMap.get(t1);
+		WeightedNode<T> n2 = backingMap.get(t2);
+		WeightedNode<T> r1 = n1 == null ? null : getRoot(n1);
+		WeightedNode<T> r2 = n2 == null ? null : getRoot(n2);
+		long o1 = n1 == null ? 0 : n1.offset;
+		long o2 = n2 == null ? 0 : n2.offset;
+		if (r1 != null && r1 == r2) {
+			long existing = subtractOffsets(o2, o1);
+			if (existing != d) {
+				throw new IllegalArgumentException("Cannot join " + t1 + " and " + t2 + " with offset " + delta +
+					"; they are already joined with offset " + existing);
+			}
+			return false;
+		}
+
+		// The offset from r1 to r2, given that n1 is o1 beyond r1 and n2 is o2 beyond r2, and the extent of the joined
+		// class relative to r1. All are computed before anything is added, so that a rejected join leaves this set
+		// unchanged.
+		long rootDelta;
+		long minOffset = 0;
+		long maxOffset = 0;
+		if (modulus == 0) {
+			try {
+				// d + o1 is the offset from r1 to n2, and rootDelta and the new extremes are offsets from r1 to members
+				// of the joined class, so none of them overflows unless the join must be rejected anyway.
+				rootDelta = Math.subtractExact(Math.addExact(d, o1), o2);
+				minOffset = Math.min(r1 == null ? 0 : r1.minOffset,
+					Math.addExact(rootDelta, r2 == null ? 0 : r2.minOffset));
+				maxOffset = Math.max(r1 == null ? 0 : r1.maxOffset,
+					Math.addExact(rootDelta, r2 == null ? 0 : r2.maxOffset));
+				Math.subtractExact(maxOffset, minOffset);
+			} catch (ArithmeticException e) {
+				throw new ArithmeticException("Cannot join " + t1 + " and " + t2 + " with offset " + delta +
+					"; the offsets between members of the joined class would overflow");
+			}
+		} else {
+			rootDelta = addOffsets(d, subtractOffsets(o1, o2));
+		}
+		boolean r1UnderR2 = (r1 == null ? 0 : r1.rank) < (r2 == null ? 0 : r2.rank);
+
+		if (n1 == null) {
+			n1 = new WeightedNode<>();
+			backingMap.put(t1, n1);
+			r1 = n1;
+		}
+		if (n2 == null) {
+			n2 = new WeightedNode<>();
+			backingMap.put(t2, n2);
+			r2 = n2;
+		}
+
+		if (r1UnderR2) {
+			r1.parent = r2;
+			r1.offset = subtractOffsets(0, rootDelta);
+			r2.minOffset = minOffset - rootDelta;
+			r2.maxOffset = maxOffset - rootDelta;
+		} else {
+			r2.parent = r1;
+			r2.offset = rootDelta;
+			r1.minOffset = minOffset;
+			r1.maxOffset = maxOffset;
+			if (r1.rank == r2.rank) {
+				r1.rank++;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the offset from one value to another, composed from the joins that placed them in the same equivalence
+	 * class. If either value is not an element of this set, or the values are members of different equivalence
+	 * classes, they have no relation and the returned {@code OptionalLong} is empty.
+	 *
+	 * @param t1 A value
+	 * @param t2 A value
+	 * @return An {@code OptionalLong} containing the offset from {@code t1} to {@code t2} if they are equivalent, or an
+	 * empty {@code OptionalLong} otherwise.
+	 */
+	public OptionalLong relation(T t1, T t2) {
+		WeightedNode<T> n1 = backingMap.get(t1);
+		WeightedNode<T> n2 = backingMap.get(t2);
+		if (n1 == null || n2 == null || getRoot(n1) != getRoot(n2)) {
+			return OptionalLong.empty();
+		}
+
+		return OptionalLong.of(subtractOffsets(n2.offset, n1.offset));
+	}
+
+	@Override
+	public int size() {
+		return backingMap.size();
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		//noinspection SuspiciousMethodCalls
+		return backingMap.containsKey(o);
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return Iterators.unmodifiableIterator(backingMap.keySet().iterator());
+	}
+
+	/**
+	 * Adds the specified element to this set, in an equivalence class of its own, if it is not already present.
+	 *
+	 * @param t element to be added to this set
+	 * @return <tt>true</tt> if this set did not already contain the specified element
+	 */
+	@Override
+	public boolean add(T t) {
+		if (backingMap.containsKey(t)) {
+			return false;
+		}
+
+		backingMap.put(t, new WeightedNode<>());
+		return true;
+	}
+
+	/**
+	 * Throws an <tt>UnsupportedOperationException</tt>
+	 */
+	@Override
+	public boolean remove(Object o) {
+		throw new UnsupportedOperationException("WeightedUnionFindSet does not support removal");
+	}
+
+	/**
+	 * Throws an <tt>UnsupportedOperationException</tt>
+	 */
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Throws an <tt>UnsupportedOperationException</tt>
+	 */
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Throws an <tt>UnsupportedOperationException</tt>
+	 */
+	@Override
+	public void clear() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Throws an <tt>UnsupportedOperationException</tt>
+	 */
+	@Override
+	public boolean removeIf(Predicate<? super T> filter) {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Finds the root of a node, compressing its path so that the node and each of its ancestors point directly at the
+	 * root, with offsets relative to the root.
+	 */
+	private WeightedNode<T> getRoot(WeightedNode<T> n) {
+		if (n.parent != n) {
+			WeightedNode<T> p = n.parent;
+			WeightedNode<T> r = getRoot(p);
+			n.offset = addOffsets(n.offset, p.offset);
+			n.parent = r;
+		}
+		return n.parent;
+	}
+
+	private long normalize(long offset) {
+		return modulus == 0 ? offset : Math.floorMod(offset, modulus);
+	}
+
+	/**
+	 * Adds two normalized offsets without overflowing, or throws if the sum of two unbounded offsets overflows.
+	 */
+	private long addOffsets(long a, long b) {
+		if (modulus == 0) {
+			return Math.addExact(a, b);
+		}
+
+		long sum = a - (modulus - b);
+		return sum < 0 ? sum + modulus : sum;
+	}
+
+	/**
+	 * Subtracts two normalized offsets without overflowing, or throws if the difference of two unbounded offsets
+	 * overflows.
+	 */
+	private long subtractOffsets(long a, long b) {
+		if (modulus == 0) {
+			return Math.subtractExact(a, b);
+		}
+
+		long difference = a - b;
+		return difference < 0 ? difference + modulus : difference;
+	}
+
+	private static class WeightedNode<T> {
+
+		private int rank = 0;
+		private WeightedNode<T> parent = this;
+
+		/**
+		 * The offset from {@code parent} to this node; always zero for a root.
+		 */
+		private long offset = 0;
+
+		/**
+		 * The least and greatest offsets from this node to a member of its class; maintained only for roots in sets
+		 * without a modulus.
+		 */
+		private long minOffset = 0;
+		private long maxOffset = 0;
+	}
+}
@@ -0,0 +1,92 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Compares {@link MinimumSpanningForest}, both copying and permuting the given edge arrays, against the naive approach
+ * of sorting boxed edge indices by weight and calling {@link UnionFindSet#join(Object, Object)} for each edge in turn,
+ * on a random graph.
+ * <p>
+ * Usage: {@code java MinimumSpanningForestBenchmark [vertexCount [edgeCount [iterations]]]}
+ */
+public class MinimumSpanningForestBenchmark {
+
+	public static void main(String[] args) {
+		int vertexCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		int edgeCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+		int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+		Random random = new Random(0);
+		int[] src = new int[edgeCount];
+		int[] dst = new int[edgeCount];
+		double[] weight = new double[edgeCount];
+		for (int i = 0; i < edgeCount; i++) {
+			src[i] = random.nextInt(vertexCount);
+			dst[i] = random.nextInt(vertexCount);
+			weight[i] = random.nextDouble();
+		}
+		System.out.printf("%,d vertices, %,d edges, %d iterations%n", vertexCount, edgeCount, iterations);
+
+		double engineWeight = 0;
+		long[] engineTimes = new long[iterations];
+		for (int i = 0; i < iterations; i++) {
+			long start = System.nanoTime();
+			engineWeight = MinimumSpanningForest.of(vertexCount, src, dst, weight).getTotalWeight();
+			engineTimes[i] = System.nanoTime() - start;
+		}
+
+		double inPlaceWeight = 0;
+		long[] inPlaceTimes = new long[iterations];
+		for (int i = 0; i < iterations; i++) {
+			int[] srcCopy = src.clone();
+			int[] dstCopy = dst.clone();
+			double[] weightCopy = weight.clone();
+			long start = System.nanoTime();
+			inPlaceWeight = MinimumSpanningForest.ofInPlace(vertexCount, srcCopy, dstCopy, weightCopy).getTotalWeight();
+			inPlaceTimes[i] = System.nanoTime() - start;
+		}
+
+		double naiveWeight = 0;
+		long[] naiveTimes = new long[iterations];
+		for (int i = 0; i < iterations; i++) {
+			long start = System.nanoTime();
+			naiveWeight = naiveKruskal(vertexCount, src, dst, weight);
+			naiveTimes[i] = System.nanoTime() - start;
+		}
+
+		double tolerance = 1e-6 * Math.max(1, Math.abs(naiveWeight));
+		if (Math.abs(engineWeight - naiveWeight) > tolerance || Math.abs(inPlaceWeight - naiveWeight) > tolerance) {
+			throw new IllegalStateException("Total weights differ: " + engineWeight + ", " + inPlaceWeight + ", and " +
+				naiveWeight);
+		}
+		System.out.printf("MinimumSpanningForest.of:        median %,d ms%n", median(engineTimes) / 1_000_000);
+		System.out.printf("MinimumSpanningForest.ofInPlace: median %,d ms%n", median(inPlaceTimes) / 1_000_000);
+		System.out.printf("UnionFindSet loop:               median %,d ms%n", median(naiveTimes) / 1_000_000);
+	}
+
+	private static double naiveKruskal(int vertexCount, int[] src, int[] dst, double[] weight) {
+		Integer[] order = new Integer[src.length];
+		for (int i = 0; i < src.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparingDouble(i -> weight[i]));
+
+		UnionFindSet<Integer> set = new UnionFindSet<>(vertexCount);
+		for (int v = 0; v < vertexCount; v++) {
+			set.add(v);
+		}
+		double totalWeight = 0;
+		for (int i : order) {
+			if (set.join(src[i], dst[i])) {
+				totalWeight += weight[i];
+			}
+		}
+		return totalWeight;
+	}
+
+	private static long median(long[] times) {
+		long[] sorted = times.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+}
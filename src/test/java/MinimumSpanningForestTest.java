@@ -0,0 +1,171 @@
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class MinimumSpanningForestTest {
+
+	@Test(expected = NullPointerException.class)
+	public void ofShouldThrowNPEIfAnArrayIsNull() {
+		MinimumSpanningForest.of(2, new int[]{0}, null, new double[]{1});
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void ofShouldThrowIAEIfArraysAreDifferentLengths() {
+		MinimumSpanningForest.of(2, new int[]{0}, new int[]{1, 0}, new double[]{1});
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void ofShouldThrowIAEIfAnEndpointIsNotAVertex() {
+		MinimumSpanningForest.of(2, new int[]{0}, new int[]{2}, new double[]{1});
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void ofShouldThrowIAEIfAWeightIsNaN() {
+		MinimumSpanningForest.of(2, new int[]{0}, new int[]{1}, new double[]{Double.NaN});
+	}
+
+	@Test
+	public void ofShouldFindTheMinimumSpanningForestOfASmallGraph() {
+		int[] src = {0, 0, 1, 1, 2, 3, 4, 5};
+		int[] dst = {1, 2, 2, 3, 3, 3, 5, 5};
+		double[] weight = {4, 1, 2, 5, 8, 0, 3, 0};
+		MinimumSpanningForest forest = MinimumSpanningForest.of(7, src, dst, weight);
+
+		assertThat(forest.getEdges(), is(new int[]{1, 2, 6, 3}));
+		assertThat(forest.getTotalWeight(), is(11.0));
+		assertThat(forest.getComponentCount(), is(3));
+		assertThat(forest.getComponentLabels(), is(new int[]{0, 0, 0, 0, 1, 1, 2}));
+	}
+
+	@Test
+	public void ofShouldAcceptAStreamOfEdges() {
+		MinimumSpanningForest forest = MinimumSpanningForest.of(3,
+			Stream.of(new double[]{0, 1, 5}, new double[]{1, 2, 1}, new double[]{0, 2, 2}), e -> (int) e[0],
+			e -> (int) e[1], e -> e[2]);
+
+		assertThat(forest.getEdges(), is(new int[]{1, 2}));
+		assertThat(forest.getTotalWeight(), is(3.0));
+	}
+
+	@Test
+	public void ofShouldAgreeWithKruskalOverUnionFindSetForLargeGraphs() {
+		Random random = new Random(0);
+		int vertexCount = 5000;
+		int edgeCount = 200000;
+		int[] src = new int[edgeCount];
+		int[] dst = new int[edgeCount];
+		double[] weight = new double[edgeCount];
+		for (int i = 0; i < edgeCount; i++) {
+			src[i] = random.nextInt(vertexCount);
+			dst[i] = random.nextInt(vertexCount);
+			weight[i] = random.nextInt(1000);
+		}
+		MinimumSpanningForest forest = MinimumSpanningForest.of(vertexCount, src, dst, weight);
+
+		Integer[] order = new Integer[edgeCount];
+		for (int i = 0; i < edgeCount; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparingDouble(i -> weight[i]));
+		UnionFindSet<Integer> set = new UnionFindSet<>(vertexCount);
+		for (int v = 0; v < vertexCount; v++) {
+			set.add(v);
+		}
+		double expectedWeight = 0;
+		for (int i : order) {
+			if (set.join(src[i], dst[i])) {
+				expectedWeight += weight[i];
+			}
+		}
+
+		assertThat(forest.getTotalWeight(), is(expectedWeight));
+		assertThat(forest.getComponentCount(), is(set.getEquivalenceClasses().size()));
+		int[] labels = forest.getComponentLabels();
+		for (int i = 0; i < edgeCount; i++) {
+			assertThat(labels[src[i]] == labels[dst[i]], is(true));
+		}
+	}
+
+	@Test
+	public void ofInPlaceShouldThrowIAEAndLeaveTheArraysUnmodifiedIfAnEndpointIsNotAVertex() {
+		int[] src = {1, 0, 0};
+		int[] dst = {1, 1, 2};
+		double[] weight = {0, 1, 2};
+
+		try {
+			MinimumSpanningForest.ofInPlace(2, src, dst, weight);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException expected) {
+			assertThat(src, is(new int[]{1, 0, 0}));
+			assertThat(dst, is(new int[]{1, 1, 2}));
+			assertThat(weight, is(new double[]{0, 1, 2}));
+		}
+	}
+
+	@Test
+	public void ofInPlaceShouldFindTheMinimumSpanningForestOfASmallGraphByPermutedIndex() {
+		int[] src = {0, 0, 1, 1, 2, 3, 4, 5};
+		int[] dst = {1, 2, 2, 3, 3, 3, 5, 5};
+		double[] weight = {4, 1, 2, 5, 8, 0, 3, 0};
+		MinimumSpanningForest forest = MinimumSpanningForest.ofInPlace(7, src, dst, weight);
+
+		int[] edges = forest.getEdges();
+		int[][] endpoints = new int[edges.length][];
+		double[] weights = new double[edges.length];
+		for (int k = 0; k < edges.length; k++) {
+			endpoints[k] = new int[]{src[edges[k]], dst[edges[k]]};
+			weights[k] = weight[edges[k]];
+		}
+		assertThat(endpoints, is(new int[][]{{0, 2}, {1, 2}, {4, 5}, {1, 3}}));
+		assertThat(weights, is(new double[]{1, 2, 3, 5}));
+		assertThat(forest.getTotalWeight(), is(11.0));
+		assertThat(forest.getComponentLabels(), is(new int[]{0, 0, 0, 0, 1, 1, 2}));
+		assertThat(encode(src, dst, weight, 7), is(encode(new int[]{0, 0, 1, 1, 2, 3, 4, 5},
+			new int[]{1, 2, 2, 3, 3, 3, 5, 5}, new double[]{4, 1, 2, 5, 8, 0, 3, 0}, 7)));
+	}
+
+	@Test
+	public void ofInPlaceShouldAgreeWithOfAndPermuteTheArraysForLargeGraphs() {
+		Random random = new Random(0);
+		int vertexCount = 5000;
+		int edgeCount = 200000;
+		int[] src = new int[edgeCount];
+		int[] dst = new int[edgeCount];
+		double[] weight = new double[edgeCount];
+		for (int i = 0; i < edgeCount; i++) {
+			src[i] = random.nextInt(vertexCount);
+			dst[i] = random.nextInt(vertexCount);
+			weight[i] = random.nextInt(1000);
+		}
+		MinimumSpanningForest expected = MinimumSpanningForest.of(vertexCount, src, dst, weight);
+		long[] expectedEdges = encode(src, dst, weight, vertexCount);
+
+		MinimumSpanningForest forest = MinimumSpanningForest.ofInPlace(vertexCount, src, dst, weight);
+
+		assertThat(forest.getTotalWeight(), is(expected.getTotalWeight()));
+		assertThat(forest.getComponentLabels(), is(expected.getComponentLabels()));
+		assertThat(encode(src, dst, weight, vertexCount), is(expectedEdges));
+		double totalWeight = 0;
+		for (int i : forest.getEdges()) {
+			totalWeight += weight[i];
+		}
+		assertThat(totalWeight, is(forest.getTotalWeight()));
+	}
+
+	/**
+	 * Encodes each edge, whose weight must be an integer below 1000, as a {@code long}, and sorts the encoded edges.
+	 */
+	private static long[] encode(int[] src, int[] dst, double[] weight, int vertexCount) {
+		long[] encoded = new long[src.length];
+		for (int i = 0; i < src.length; i++) {
+			encoded[i] = ((long) src[i] * vertexCount + dst[i]) * 1000 + (long) weight[i];
+		}
+		Arrays.sort(encoded);
+		return encoded;
+	}
+}
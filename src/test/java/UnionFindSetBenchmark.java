@@ -0,0 +1,95 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares {@link UnionFindSet#areEquivalentAll(List, List, boolean)} against a loop of {@link
+ * UnionFindSet#areEquivalent(Object, Object)} calls, on a set of random equivalence classes. Two batches of random
+ * pairs are timed: one of the given size, and one 64 times larger, well above the size at which batches are resolved
+ * in parallel by default.
+ * <p>
+ * Usage: {@code java UnionFindSetBenchmark [elementCount [pairCount [repetitions [iterations]]]]}
+ */
+public class UnionFindSetBenchmark {
+
+	public static void main(String[] args) {
+		int elementCount = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+		int pairCount = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+		int repetitions = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+		int iterations = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+		Random random = new Random(0);
+		UnionFindSet<Integer> set = new UnionFindSet<>(elementCount);
+		for (int i = 0; i < elementCount; i++) {
+			set.add(i);
+		}
+		for (int i = 0; i < elementCount / 2; i++) {
+			set.join(random.nextInt(elementCount), random.nextInt(elementCount));
+		}
+		System.out.printf("%,d elements, %,d pairs, %,d repetitions, %d iterations%n", elementCount, pairCount,
+			repetitions, iterations);
+
+		run(String.format("%,d pairs", pairCount), set, randomElements(random, elementCount, pairCount),
+			randomElements(random, elementCount, pairCount), repetitions, iterations);
+		run(String.format("%,d pairs", pairCount * 64), set, randomElements(random, elementCount, pairCount * 64),
+			randomElements(random, elementCount, pairCount * 64), Math.max(1, repetitions / 64), iterations);
+	}
+
+	private static List<Integer> randomElements(Random random, int elementCount, int size) {
+		List<Integer> elements = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			elements.add(random.nextInt(elementCount));
+		}
+		return elements;
+	}
+
+	private static void run(String name, UnionFindSet<Integer> set, List<Integer> a, List<Integer> b,
+		int repetitions, int iterations) {
+		long[] loopTimes = new long[iterations];
+		long[] sequentialTimes = new long[iterations];
+		long[] parallelTimes = new long[iterations];
+		BitSet loop = null;
+		BitSet sequential = null;
+		BitSet parallel = null;
+		for (int i = 0; i < iterations; i++) {
+			long start = System.nanoTime();
+			for (int r = 0; r < repetitions; r++) {
+				loop = new BitSet(a.size());
+				for (int j = 0; j < a.size(); j++) {
+					if (set.areEquivalent(a.get(j), b.get(j))) {
+						loop.set(j);
+					}
+				}
+			}
+			loopTimes[i] = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int r = 0; r < repetitions; r++) {
+				sequential = set.areEquivalentAll(a, b, false);
+			}
+			sequentialTimes[i] = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int r = 0; r < repetitions; r++) {
+				parallel = set.areEquivalentAll(a, b, true);
+			}
+			parallelTimes[i] = System.nanoTime() - start;
+		}
+
+		if (!loop.equals(sequential) || !loop.equals(parallel)) {
+			throw new IllegalStateException("Batch results differ from the areEquivalent loop");
+		}
+		System.out.printf("%s:%n", name);
+		System.out.printf("  areEquivalent loop:          median %,d ms%n", median(loopTimes) / 1_000_000);
+		System.out.printf("  areEquivalentAll sequential: median %,d ms%n", median(sequentialTimes) / 1_000_000);
+		System.out.printf("  areEquivalentAll parallel:   median %,d ms%n", median(parallelTimes) / 1_000_000);
+	}
+
+	private static long median(long[] times) {
+		long[] sorted = times.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+}
@@ -186,5 +186,123 @@ public class UnionFindSetTest {
 			//noinspection unchecked
 			assertThat(newHashSet(equivalenceClasses), is(newHashSet(newHashSet(0, 1), newHashSet(2, 3))));
 		}
+
+		@Test
+		public void areEquivalentAllShouldReturnBitsSetForEquivalentPairs() {
+			UnionFindSet<Integer> set = new UnionFindSet<>(asList(0, 1, 2, 3));
+			set.join(0, 1);
+			set.join(1, 2);
+			BitSet equivalent = set.areEquivalentAll(asList(0, 0, 3, 2, 4), asList(2, 3, 3, 1, 4));
+
+			assertThat(equivalent, is(BitSet.valueOf(new long[]{0b01101})));
+		}
+
+		@Test(expected = IllegalArgumentException.class)
+		public void areEquivalentAllShouldThrowIAEIfListsAreDifferentSizes() {
+			new UnionFindSet<>(asList(0, 1)).areEquivalentAll(asList(0, 1), singletonList(0));
+		}
+
+		@Test(expected = NullPointerException.class)
+		public void areEquivalentAllShouldThrowNPEIfAListIsNull() {
+			new UnionFindSet<>(asList(0, 1)).areEquivalentAll(asList(0, 1), null);
+		}
+
+		@Test
+		public void areEquivalentAllShouldAgreeWithAreEquivalentForLargeBatches() {
+			UnionFindSet<Integer> set = new UnionFindSet<>();
+			for (int i = 0; i < 20000; i++) {
+				set.join(i, i % 7);
+			}
+			List<Integer> a = new ArrayList<>();
+			List<Integer> b = new ArrayList<>();
+			for (int i = 0; i < 20000; i++) {
+				a.add(i);
+				b.add((i * 31) % 20001);
+			}
+			BitSet equivalent = set.areEquivalentAll(a, b);
+
+			for (int i = 0; i < a.size(); i++) {
+				assertThat(equivalent.get(i), is(set.areEquivalent(a.get(i), b.get(i))));
+			}
+		}
+
+		@Test
+		public void areEquivalentAllShouldReturnTheSameResultWhetherSequentialOrParallel() {
+			UnionFindSet<Integer> set = new UnionFindSet<>(asList(0, 1, 2, 3));
+			set.join(0, 1);
+			set.join(2, 3);
+			List<Integer> a = asList(0, 0, 2, 4);
+			List<Integer> b = asList(1, 2, 3, 4);
+
+			assertThat(set.areEquivalentAll(a, b, true), is(set.areEquivalentAll(a, b, false)));
+			assertThat(set.areEquivalentAll(a, b, false), is(BitSet.valueOf(new long[]{0b0101})));
+		}
+
+		@Test
+		public void rootsOfShouldReturnTheSameRepresentativeForEquivalentElements() {
+			UnionFindSet<Integer> set = new UnionFindSet<>(asList(0, 1, 2, 3));
+			set.join(0, 1);
+			set.join(1, 2);
+			Map<Integer, Integer> roots = set.rootsOf(asList(0, 1, 2, 3, 2));
+
+			assertThat(roots.keySet(), is(newHashSet(0, 1, 2, 3)));
+			assertThat(roots.get(0), is(roots.get(1)));
+			assertThat(roots.get(0), is(roots.get(2)));
+			assertThat(roots.get(0).equals(roots.get(3)), is(false));
+		}
+
+		@Test
+		public void rootsOfShouldOmitValuesNotInTheSet() {
+			UnionFindSet<Integer> set = new UnionFindSet<>(singletonList(1));
+			Map<Integer, Integer> roots = set.rootsOf(asList(0, 1, 2));
+
+			assertThat(roots.keySet(), is(newHashSet(1)));
+			assertThat(roots.get(1), is(1));
+		}
+
+		@Test
+		public void rootsOfShouldReturnTheSameResultWhetherSequentialOrParallel() {
+			UnionFindSet<Integer> set = new UnionFindSet<>(asList(0, 1, 2, 3));
+			set.join(0, 1);
+			set.join(1, 2);
+
+			assertThat(set.rootsOf(asList(0, 1, 2, 3, 4), true), is(set.rootsOf(asList(0, 1, 2, 3, 4), false)));
+		}
+
+		@Test(expected = NullPointerException.class)
+		public void fromClassesShouldThrowNPEIfClassesIsNull() {
+			UnionFindSet.fromClasses(null);
+		}
+
+		@Test
+		public void fromClassesShouldJoinElementsWithEqualClassKeys() {
+			Map<Integer, String> classes = new HashMap<>();
+			classes.put(0, "a");
+			classes.put(1, "b");
+			classes.put(2, "a");
+			classes.put(3, null);
+			classes.put(4, "a");
+			classes.put(5, null);
+			UnionFindSet<Integer> set = UnionFindSet.fromClasses(classes);
+
+			assertThat(set, is(newHashSet(0, 1, 2, 3, 4, 5)));
+			//noinspection unchecked
+			assertThat(newHashSet(set.getEquivalenceClasses()),
+				is(newHashSet(newHashSet(0, 2, 4), newHashSet(1), newHashSet(3, 5))));
+		}
+
+		@Test
+		public void fromClassesShouldReturnASetThatCanBeJoinedFurther() {
+			Map<Integer, String> classes = new HashMap<>();
+			classes.put(0, "a");
+			classes.put(1, "a");
+			classes.put(2, "b");
+			classes.put(3, "b");
+			UnionFindSet<Integer> set = UnionFindSet.fromClasses(classes);
+
+			assertThat(set.join(0, 2), is(true));
+			assertThat(set.areEquivalent(1, 3), is(true));
+			assertThat(set.join(1, 3), is(false));
+		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,204 @@
+import com.google.common.collect.testing.SetTestSuiteBuilder;
+import com.google.common.collect.testing.TestStringSetGenerator;
+import com.google.common.collect.testing.features.CollectionFeature;
+import com.google.common.collect.testing.features.CollectionSize;
+import junit.framework.TestSuite;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+import java.util.*;
+
+import static java.util.Collections.addAll;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+@RunWith(Suite.class)
+@Suite.SuiteClasses({WeightedUnionFindSetTest.GuavaTests.class, WeightedUnionFindSetTest.AdditionalTests.class,})
+public class WeightedUnionFindSetTest {
+
+	public static class GuavaTests {
+		public static TestSuite suite() {
+			return SetTestSuiteBuilder.using(new TestStringSetGenerator() {
+
+				@Override
+				protected Set<String> create(String[] elements) {
+					WeightedUnionFindSet<String> set = new WeightedUnionFindSet<>();
+					addAll(set, elements);
+					return set;
+				}
+			}).named("WeightedUnionFindSet tests").withFeatures(CollectionSize.ANY,
+				CollectionFeature.ALLOWS_NULL_QUERIES, CollectionFeature.ALLOWS_NULL_VALUES,
+				CollectionFeature.SUPPORTS_ADD).createTestSuite();
+		}
+	}
+
+	public static class AdditionalTests {
+
+		@Test(expected = IllegalArgumentException.class)
+		public void withModulusShouldThrowIAEIfModulusIsLessThanOne() {
+			WeightedUnionFindSet.withModulus(0);
+		}
+
+		@Test
+		public void whenPassedValuesThatAreNotInTheSetJoinShouldAddTheValuesAndReturnTrue() {
+			WeightedUnionFindSet<Integer> set = new WeightedUnionFindSet<>();
+
+			assertThat(set.join(0, 1, 5), is(true));
+			assertThat(set.contains(0), is(true));
+			assertThat(set.contains(1), is(true));
+			assertThat(set.areEquivalent(0, 1), is(true));
+		}
+
+		@Test
+		public void relationShouldReturnTheOffsetOfADirectJoin() {
+			WeightedUnionFindSet<Integer> set = new WeightedUnionFindSet<>();
+			set.join(0, 1, 5);
+
+			assertThat(set.relation(0, 1), is(OptionalLong.of(5)));
+			assertThat(set.relation(1, 0), is(OptionalLong.of(-5)));
+			assertThat(set.relation(1, 1), is(OptionalLong.of(0)));
+		}
+
+		@Test
+		public void relationShouldComposeOffsetsOfTransitiveJoins() {
+			WeightedUnionFindSet<Integer> set = new WeightedUnionFindSet<>();
+			set.join(0, 1, 5);
+			set.join(2, 3, 7);
+			set.join(1, 3, -2);
+
+			assertThat(set.relation(0, 3), is(OptionalLong.of(3)));
+			assertThat(set.relation(2, 0), is(OptionalLong.of(4)));
+			assertThat(set.relation(3, 1), is(OptionalLong.of(2)));
+		}
+
+		@Test
+		public void relationShouldReturnEmptyOptionalForValuesThatAreNotEquivalent() {
+			WeightedUnionFindSet<Integer> set = new WeightedUnionFindSet<>();
+			set.join(0, 1, 5);
+			set.add(2);
+
+			assertThat(set.relation(0, 2), is(OptionalLong.empty()));
+			assertThat(set.relation(0, 3), is(OptionalLong.empty()));
+		}
+
+		@Test
+		public void whenPassedAnOffsetThatAgreesWithExistingJoinsJoinShouldReturnFalse() {
+			WeightedUnionFindSet<Integer> set = new WeightedUnionFindSet<>();
+			set.join(0, 1, 5);
+			set.join(1, 2, 3);
+
+			assertThat(set.join(2, 0, -8), is(false));
+		}
+
+		@Test(expected = IllegalArgumentException.class)
+		public void whenPassedAnOffsetThatContradictsExistingJoinsJoinShouldThrowIAE() {
+			WeightedUnionFindSet<Integer> set = new WeightedUnionFindSet<>();
+			set.join(0, 1, 5);
+			set.join(1, 2, 3);
+			set.join(0, 2, 7);
+		}
+
+		@Test
+		public void withModulusTwoJoinShouldTrackParity() {
+			WeightedUnionFindSet<Integer> set = WeightedUnionFindSet.withModulus(2);
+			set.join(0, 1, 1);
+			set.join(1, 2, 1);
+
+			assertThat(set.relation(0, 2), is(OptionalLong.of(0)));
+			assertThat(set.relation(2, 1), is(OptionalLong.of(1)));
+			assertThat(set.join(0, 2, 2), is(false));
+		}
+
+		@Test(expected = IllegalArgumentException.class)
+		public void withModulusTwoJoinShouldThrowIAEForContradictoryParity() {
+			WeightedUnionFindSet<Integer> set = WeightedUnionFindSet.withModulus(2);
+			set.join(0, 1, 1);
+			set.join(1, 2, 1);
+			set.join(0, 2, 1);
+		}
+
+		@Test
+		public void whenPassedTheSameNewValueTwiceWithZeroOffsetJoinShouldAddTheValueAndReturnTrue() {
+			WeightedUnionFindSet<String> set = new WeightedUnionFindSet<>();
+
+			assertThat(set.join("x", "x", 0), is(true));
+			assertThat(set.contains("x"), is(true));
+			assertThat(set.relation("x", "x"), is(OptionalLong.of(0)));
+			assertThat(set.join("x", "x", 0), is(false));
+		}
+
+		@Test
+		public void whenPassedTheSameValueTwiceWithNonZeroOffsetJoinShouldThrowIAEAndLeaveTheSetUnchanged() {
+			WeightedUnionFindSet<String> set = new WeightedUnionFindSet<>();
+
+			try {
+				set.join("x", "x", 5);
+				fail("Expected IllegalArgumentException");
+			} catch (IllegalArgumentException expected) {
+				assertThat(set.contains("x"), is(false));
+			}
+		}
+
+		@Test
+		public void withModulusJoinShouldNotOverflowForLargeModuli() {
+			WeightedUnionFindSet<Integer> set = WeightedUnionFindSet.withModulus(Long.MAX_VALUE);
+			set.join(0, 1, Long.MAX_VALUE - 1);
+			set.join(1, 2, Long.MAX_VALUE - 1);
+			set.join(2, 3, Long.MAX_VALUE - 1);
+
+			assertThat(set.relation(0, 3), is(OptionalLong.of(Long.MAX_VALUE - 3)));
+			assertThat(set.relation(3, 0), is(OptionalLong.of(3)));
+		}
+
+		@Test
+		public void whenOffsetsWouldOverflowJoinShouldThrowArithmeticExceptionAndLeaveTheSetUnchanged() {
+			WeightedUnionFindSet<Integer> set = new WeightedUnionFindSet<>();
+			set.join(0, 1, Long.MAX_VALUE);
+
+			try {
+				set.join(1, 2, 1);
+				fail("Expected ArithmeticException");
+			} catch (ArithmeticException expected) {
+				assertThat(set.contains(2), is(false));
+				assertThat(set.relation(0, 1), is(OptionalLong.of(Long.MAX_VALUE)));
+			}
+		}
+
+		@Test
+		public void whenTheJoinedClassWouldSpanMoreThanALongJoinShouldThrowArithmeticExceptionAndLeaveTheSetUnchanged() {
+			WeightedUnionFindSet<String> set = new WeightedUnionFindSet<>();
+			set.join("r2", "x", 1L << 62);
+			set.join("r1", "y", 1L << 62);
+
+			try {
+				set.join("r1", "r2", 1L << 62);
+				fail("Expected ArithmeticException");
+			} catch (ArithmeticException expected) {
+				assertThat(set.areEquivalent("x", "r1"), is(false));
+				assertThat(set.relation("x", "y"), is(OptionalLong.empty()));
+				assertThat(set.relation("r2", "x"), is(OptionalLong.of(1L << 62)));
+				assertThat(set.relation("r1", "y"), is(OptionalLong.of(1L << 62)));
+			}
+		}
+
+		@Test
+		public void whenTheJoinedClassSpansExactlyALongJoinShouldSucceedAndAllRelationsShouldBeQueryable() {
+			WeightedUnionFindSet<String> set = new WeightedUnionFindSet<>();
+			set.join("a", "b", 1L << 62);
+			set.join("c", "d", (1L << 62) - 1);
+
+			assertThat(set.join("b", "c", 0), is(true));
+			assertThat(set.relation("a", "d"), is(OptionalLong.of(Long.MAX_VALUE)));
+			assertThat(set.relation("d", "a"), is(OptionalLong.of(-Long.MAX_VALUE)));
+			assertThat(set.relation("c", "b"), is(OptionalLong.of(0)));
+			try {
+				set.join("a", "e", -1);
+				fail("Expected ArithmeticException");
+			} catch (ArithmeticException expected) {
+				assertThat(set.contains("e"), is(false));
+			}
+		}
+	}
+}